@@ -0,0 +1,82 @@
+package com.ryu.rest.common;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.EntityManagerFactoryInfo;
+import org.springframework.stereotype.Controller;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.HandlerAdapter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.Filter;
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * prod 프로파일에서 애플리케이션 빈들을 지연 초기화 하도록 설정하는 클래스
+ *
+ * 스프링 부트 2.1에는 spring.main.lazy-initialization 프로퍼티가 없기 때문에
+ * BeanFactoryPostProcessor로 빈 정의를 직접 lazy로 바꿔준다.
+ * 스프링 내부에서 사용하는 인프라 빈(ROLE_INFRASTRUCTURE)은 그대로 즉시 초기화 한다.
+ *
+ * ■ 즉시 초기화 하는 빈
+ * - 영속성(DataSource, EntityManagerFactory, 트랜잭션 매니저): lazy로 만들면 Hibernate 부트스트랩이 백그라운드에서 미리 돌지 못하고,
+ *   DB 설정이 잘못되어도 기동 시점이 아니라 첫 요청에서야 실패한다.
+ * - 요청 처리 경로(핸들러 매핑/어댑터, 서블릿 필터(시큐리티 필터 체인), 컨트롤러와 그 의존 빈): lazy로 만들면
+ *   기동 시간에서 빠진 만큼 첫 요청이 느려진다. 오토스케일러가 트래픽을 보내는 시점이 바로 첫 요청이다.
+ * 이름이 아니라 타입으로 찾기 때문에 빈 이름이 바뀌거나 DataSource 가 여러개여도 그대로 적용된다.
+ */
+@Configuration
+@Profile("prod")
+public class LazyInitializationConfiguration {
+
+    static final List<Class<?>> EAGER_BEAN_TYPES = Collections.unmodifiableList(Arrays.asList(
+            DataSource.class,
+            EntityManagerFactory.class,
+            // LocalContainerEntityManagerFactoryBean 같은 FactoryBean 은 초기화 전에는 EntityManagerFactory 타입으로 찾을 수 없다.
+            EntityManagerFactoryInfo.class,
+            PlatformTransactionManager.class,
+            HandlerMapping.class,
+            HandlerAdapter.class,
+            Filter.class
+    ));
+
+    /**
+     * 다른 빈이 만들어지기 전에 실행되어야 하므로 static 으로 등록한다.
+     */
+    @Bean
+    public static BeanFactoryPostProcessor lazyInitializationBeanFactoryPostProcessor() {
+        return beanFactory -> {
+            Set<String> eagerBeanNames = eagerBeanNames(beanFactory);
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+                if (beanDefinition.getRole() != BeanDefinition.ROLE_INFRASTRUCTURE
+                        && !eagerBeanNames.contains(beanName)) {
+                    beanDefinition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    static Set<String> eagerBeanNames(ConfigurableListableBeanFactory beanFactory) {
+        Set<String> beanNames = new HashSet<>();
+        for (Class<?> type : EAGER_BEAN_TYPES) {
+            for (String beanName : beanFactory.getBeanNamesForType(type, true, false)) {
+                // FactoryBean 은 "&이름" 으로 찾아질 수 있으므로 빈 정의 이름으로 맞춘다.
+                beanNames.add(beanName.startsWith("&") ? beanName.substring(1) : beanName);
+            }
+        }
+        beanNames.addAll(Arrays.asList(beanFactory.getBeanNamesForAnnotation(Controller.class)));
+        return beanNames;
+    }
+
+}
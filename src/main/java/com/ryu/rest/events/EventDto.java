@@ -16,8 +16,6 @@ import java.time.LocalDateTime;
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 public class EventDto {
 
-    @NotEmpty
-    private Integer id;
     @NotEmpty
     private String name;
     @NotNull
@@ -0,0 +1,123 @@
+#!/usr/bin/env bash
+#
+# 설정별로 인스턴스가 트래픽을 받을 수 있을 때까지 걸리는 시간과 메모리를 비교한다.
+#
+#   default    : 기본 빌드 fat jar, 프로파일 없음
+#   prod       : 기본 빌드 fat jar, prod 프로파일
+#   startup    : -Pstartup 빌드 thin jar(컴포넌트 인덱스 포함), prod 프로파일
+#   startup-cds: startup + AppCDS 아카이브
+#
+# 측정 항목 (각 항목 RUNS 회의 중앙값)
+#   started(ms)   : 스프링 부트 기동 로그 "Started ... (JVM running for N)" 의 N
+#   rss@started   : 그 시점의 VmRSS
+#   first(ms)     : 기동 직후 첫 POST /api/events 한 건의 응답 시간
+#   ready(ms)     : JVM 실행부터 첫 POST /api/events 가 201 을 받을 때까지의 시간
+#   rss@first     : 첫 POST 이후의 VmRSS
+#
+# 이 트리에는 시큐리티 설정이 없어서 기본 설정으로는 익명 POST 가 401/403 이 되므로,
+# 모든 설정에서 시큐리티 오토컨피그를 빼고 측정한다.
+#
+# 사용법: src/main/scripts/measure-startup.sh [반복 횟수(기본 5)]
+# DB 는 DB_URL 로 바꿀 수 있다. 지정하지 않으면 로컬 메이븐 저장소의 H2 를 PostgreSQL 모드로 붙여서 사용한다.
+# 결과는 target/startup/report.txt 에 남는다.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/../../.."
+
+RUNS=${1:-5}
+OUT=target/startup
+JAR=whiteship-rest-api-0.0.1-SNAPSHOT
+H2_JAR=${H2_JAR:-$(ls ~/.m2/repository/com/h2database/h2/*/h2-*.jar | tail -1)}
+DB_URL=${DB_URL:-jdbc:h2:mem:startup;MODE=PostgreSQL}
+SECURITY_EXCLUDES=org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration,\
+org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration,\
+org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration,\
+org.springframework.boot.autoconfigure.security.oauth2.resource.servlet.OAuth2ResourceServerAutoConfiguration
+APP_ARGS="--server.port=0 --spring.datasource.url=$DB_URL --spring.autoconfigure.exclude=$SECURITY_EXCLUDES"
+EVENT='{"name":"Spring","description":"REST API Development with Spring",
+"beginEnrollmentDateTime":"2019-05-16T00:11:00","closeEnrollmentDateTime":"2019-05-16T00:11:00",
+"beginEventDateTime":"2019-05-16T00:11:00","endEventDateTime":"2019-05-17T00:11:00",
+"basePrice":100,"maxPrice":200,"limitOfEnrollment":100,"location":"D2"}'
+
+# 두 빌드 모두 clean 해야 -Pstartup 빌드에서 컴포넌트 인덱스가 다시 만들어진다.
+TMP=$(mktemp -d)
+mvn -B -q -DskipTests clean package
+cp target/$JAR.jar $TMP/default.jar
+mvn -B -q -DskipTests -Pstartup clean package
+mkdir -p $OUT
+mv $TMP/default.jar $OUT/default.jar
+rmdir $TMP
+
+fat() {
+    echo "-cp $1 -Dloader.path=$H2_JAR org.springframework.boot.loader.PropertiesLauncher"
+}
+THIN="-cp target/$JAR.jar:$H2_JAR com.ryu.rest.WhiteshipRestApiApplication"
+
+# $1: 로그 파일, $2: pid - 기동 로그가 나올 때까지 기다린다. 프로세스가 죽으면 로그를 보여주고 끝낸다.
+wait_started() {
+    until grep -q "JVM running for" "$1"; do
+        kill -0 "$2" 2>/dev/null || { cat "$1" >&2; exit 1; }
+        sleep 0.05
+    done
+}
+
+# AppCDS 아카이브: 한 번 기동해서 로드된 클래스 목록을 뽑고, 그 목록으로 아카이브를 만든다.
+# (-Pstartup 빌드는 CDS 를 쓸 수 있는 thin jar 구성만 만들고, 아카이브는 이 스크립트에서 만든다.)
+java -XX:DumpLoadedClassList=$OUT/app.classlist $THIN $APP_ARGS --spring.profiles.active=prod > $OUT/classlist.log 2>&1 &
+PID=$!
+wait_started $OUT/classlist.log $PID
+kill $PID; wait $PID || true
+java -Xshare:dump -XX:SharedClassListFile=$OUT/app.classlist -XX:SharedArchiveFile=$OUT/app.jsa $THIN > $OUT/dump.log 2>&1
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# $1: 이름, 나머지: java 인자
+measure() {
+    local name=$1; shift
+    local log=$OUT/$name.log
+    for i in $(seq "$RUNS"); do
+        local launched=$(now_ms)
+        java "$@" > "$log" 2>&1 &
+        local pid=$!
+        wait_started "$log" $pid
+        local started=$(grep -o "JVM running for [0-9.]*" "$log" | awk '{printf "%d", $4 * 1000}')
+        local rss_started=$(awk '/VmRSS/ {print $2}' /proc/$pid/status)
+        local port=$(grep -o "Tomcat started on port(s): [0-9]*" "$log" | awk '{print $5}')
+
+        local result=$(curl -s -o /dev/null -w "%{http_code} %{time_total}" -X POST \
+                -H "Content-Type: application/json;charset=UTF-8" -H "Accept: application/hal+json" \
+                -d "$EVENT" "http://localhost:$port/api/events")
+        local ready=$(( $(now_ms) - launched ))
+        local rss_first=$(awk '/VmRSS/ {print $2}' /proc/$pid/status)
+        kill $pid; wait $pid || true
+
+        [ "${result%% *}" = "201" ] || { echo "$name: first POST returned ${result%% *}" >&2; cat "$log" >&2; exit 1; }
+        local first=$(echo "$result" | awk '{printf "%d", $2 * 1000}')
+        echo "$name $started $rss_started $first $ready $rss_first"
+    done
+}
+
+{
+    measure default $(fat $OUT/default.jar) $APP_ARGS
+    measure prod $(fat $OUT/default.jar) $APP_ARGS --spring.profiles.active=prod
+    measure startup $THIN $APP_ARGS --spring.profiles.active=prod
+    measure startup-cds -Xshare:on -XX:SharedArchiveFile=$OUT/app.jsa $THIN $APP_ARGS --spring.profiles.active=prod
+} > $OUT/runs.txt
+
+# $1: 이름, $2: runs.txt 컬럼 번호
+median() {
+    awk -v n=$1 -v c=$2 '$1 == n {print $c}' $OUT/runs.txt | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}'
+}
+
+{
+    echo "java: $(java -version 2>&1 | head -1), cpus: $(nproc), runs: $RUNS, db: $DB_URL"
+    printf "%-12s %12s %14s %10s %10s %12s\n" "variant" "started(ms)" "rss@started(MB)" "first(ms)" "ready(ms)" "rss@first(MB)"
+    for name in default prod startup startup-cds; do
+        printf "%-12s %12s %14s %10s %10s %12s\n" "$name" \
+                "$(median $name 2)" "$(( $(median $name 3) / 1024 ))" \
+                "$(median $name 4)" "$(median $name 5)" "$(( $(median $name 6) / 1024 ))"
+    done
+} | tee $OUT/report.txt
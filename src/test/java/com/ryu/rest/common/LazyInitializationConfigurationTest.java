@@ -0,0 +1,63 @@
+package com.ryu.rest.common;
+
+import com.ryu.rest.events.Event;
+import com.ryu.rest.events.EventRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * prod 프로파일 설정으로 실제 기동이 되는지 H2(PostgreSQL 모드)로 확인하는 테스트
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prod;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver"
+})
+@ActiveProfiles("prod")
+public class LazyInitializationConfigurationTest {
+
+    @Autowired
+    ConfigurableListableBeanFactory beanFactory;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Test
+    @TestDescription("영속성, 요청 처리 경로 빈은 즉시 초기화 하고 나머지 애플리케이션 빈은 지연 초기화 하는 테스트")
+    public void lazyInitialization() {
+        for (Class<?> type : LazyInitializationConfiguration.EAGER_BEAN_TYPES) {
+            String[] beanNames = beanFactory.getBeanNamesForType(type);
+            assertThat(type.getName(), beanNames.length, greaterThan(0));
+            for (String beanName : beanNames) {
+                beanName = beanName.startsWith("&") ? beanName.substring(1) : beanName;
+                assertThat(beanName, beanFactory.getBeanDefinition(beanName).isLazyInit(), is(false));
+            }
+        }
+        assertThat(beanFactory.getBeanDefinition("eventController").isLazyInit(), is(false));
+        assertThat(beanFactory.getBeanDefinition("eventValidator").isLazyInit(), is(true));
+    }
+
+    @Test
+    @TestDescription("prod 프로파일에서 리포지토리로 이벤트를 저장하는 테스트")
+    public void saveEvent() {
+        Event event = Event.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .build();
+
+        Event newEvent = eventRepository.save(event);
+
+        assertThat(newEvent.getId(), notNullValue());
+    }
+
+}
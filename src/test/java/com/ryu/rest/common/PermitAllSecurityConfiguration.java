@@ -0,0 +1,25 @@
+package com.ryu.rest.common;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+
+/**
+ * 인증 없이 API를 호출하기 위한 테스트용 시큐리티 설정
+ *
+ * oauth2-resource-server 의존성 때문에 spring-security-web 이 들어와 있어서,
+ * 아무 설정이 없으면 스프링 부트 기본 설정으로 모든 요청에 인증과 CSRF 토큰이 필요하다. (익명 POST 는 403)
+ */
+@TestConfiguration
+public class PermitAllSecurityConfiguration extends WebSecurityConfigurerAdapter {
+
+    @Override
+    protected void configure(HttpSecurity http) throws Exception {
+        http
+                .csrf().disable()
+                .authorizeRequests()
+                    .mvcMatchers("/api/**").permitAll()
+                    .anyRequest().authenticated();
+    }
+
+}
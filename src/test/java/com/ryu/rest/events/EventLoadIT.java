@@ -0,0 +1,320 @@
+package com.ryu.rest.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ryu.rest.common.PermitAllSecurityConfiguration;
+import com.ryu.rest.common.TestDescription;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 실제 서버(내장 톰캣 + PostgreSQL 모드 H2)를 띄워서 부하를 주는 테스트
+ *
+ * mvn -Pload-test verify 로 실행하며, 일반 mvn test 에서는 실행되지 않는다.
+ * 설정은 시스템 프로퍼티로 바꿀 수 있다. (예: -Dload.rate=500 -Dload.concurrency=64)
+ * 결과 히스토그램은 failsafe 설정에서 넘겨주는 load.outputDirectory 에 남긴다.
+ *
+ * ■ open-loop 방식
+ * 응답을 기다렸다가 다음 요청을 보내면(closed-loop) 서버가 느려질수록 요청도 덜 보내게 되어 지연시간이 실제보다 좋게 나온다.
+ * 그래서 정해진 도착률(load.rate)대로 요청 시각을 미리 정해두고, 지연시간은 실제 전송 시각이 아닌 예정 시각부터 잰다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "logging.level.root=WARN"
+})
+@Import(PermitAllSecurityConfiguration.class)
+public class EventLoadIT {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    int rate = Integer.getInteger("load.rate", 100);
+    int concurrency = Integer.getInteger("load.concurrency", 32);
+    int warmupSeconds = Integer.getInteger("load.warmupSeconds", 5);
+    int durationSeconds = Integer.getInteger("load.durationSeconds", 30);
+    long seed = Long.getLong("load.seed", 42L);
+    // 요청 비율 (정상 생성 : 빈 입력 : 잘못된 입력)
+    String mix = System.getProperty("load.mix", "60,20,20");
+    String outputDirectory = System.getProperty("load.outputDirectory");
+
+    // 이 값을 넘어서면 빌드를 실패시킨다.
+    // 기본값은 vCPU 1개, JDK 11 환경에서 100 req/s 로 3회 측정한 값 기준 (p99 최대 37.6ms, 에러 0건, 처리량 100 req/s)
+    // p99 는 측정값의 약 2배로 여유를 두고, 응답이 항상 같은 요청들이라 에러는 한 건도 허용하지 않는다.
+    // 200 req/s 에서는 같은 환경에서 처리량이 118 req/s 에 그쳐서 기본 도착률은 100 req/s 로 둔다.
+    double maxP99Millis = Double.parseDouble(System.getProperty("load.maxP99Millis", "75"));
+    double maxErrorRatio = Double.parseDouble(System.getProperty("load.maxErrorRatio", "0"));
+    double minThroughputRatio = Double.parseDouble(System.getProperty("load.minThroughputRatio", "0.95"));
+
+    @Test
+    @TestDescription("생성, 빈 입력, 잘못된 입력 요청을 섞어서 정해진 도착률로 보내는 부하 테스트")
+    public void mixedTraffic() throws Exception {
+        int[] weights = validateSettings();
+        List<Scenario> scenarios = scenarios(weights);
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            run(client, scenarios, warmupSeconds);
+            scenarios.forEach(Scenario::reset);
+
+            long startNanos = System.nanoTime();
+            run(client, scenarios, durationSeconds);
+            double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+
+            report(scenarios, elapsedSeconds);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 잘못된 설정은 부하를 주기 전에 어떤 프로퍼티가 문제인지 알려주고 실패시킨다.
+     *
+     * @return load.mix 를 파싱한 요청 비율
+     */
+    private int[] validateSettings() {
+        assertTrue("load.rate must be greater than 0: " + rate, rate > 0);
+        assertTrue("load.concurrency must be greater than 0: " + concurrency, concurrency > 0);
+        assertTrue("load.warmupSeconds must not be negative: " + warmupSeconds, warmupSeconds >= 0);
+        assertTrue("load.durationSeconds must be greater than 0: " + durationSeconds, durationSeconds > 0);
+
+        String[] values = mix.split(",");
+        assertTrue("load.mix must have 3 comma separated weights (create, empty input, wrong input): " + mix, values.length == 3);
+        int[] weights = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            try {
+                weights[i] = Integer.parseInt(values[i].trim());
+            } catch (NumberFormatException e) {
+                throw new AssertionError("load.mix must contain integers only: " + mix);
+            }
+            assertTrue("load.mix weights must not be negative: " + mix, weights[i] >= 0);
+        }
+        assertTrue("load.mix weights must not all be 0: " + mix, weights[0] + weights[1] + weights[2] > 0);
+        return weights;
+    }
+
+    private List<Scenario> scenarios(int[] weights) throws Exception {
+        EventDto event = EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2019, 05, 16, 00, 11))
+                .closeEnrollmentDateTime(LocalDateTime.of(2019, 05, 16, 00, 11))
+                .beginEventDateTime(LocalDateTime.of(2019, 05, 16, 00, 11))
+                .endEventDateTime(LocalDateTime.of(2019, 05, 17, 00, 11))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("강남역 D2 스타텁 팩토리")
+                .build();
+
+        EventDto wrongEvent = EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2019, 05, 16, 00, 11))
+                .closeEnrollmentDateTime(LocalDateTime.of(2019, 05, 16, 00, 11))
+                .beginEventDateTime(LocalDateTime.of(2019, 05, 19, 00, 11))
+                .endEventDateTime(LocalDateTime.of(2019, 05, 17, 00, 11))
+                .basePrice(10000)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("강남역 D2 스타텁 팩토리")
+                .build();
+
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new Scenario("create-event", weights[0], 201, eventsRequest(event)));
+        scenarios.add(new Scenario("create-event-empty-input", weights[1], 400, eventsRequest(EventDto.builder().build())));
+        scenarios.add(new Scenario("create-event-wrong-input", weights[2], 400, eventsRequest(wrongEvent)));
+        return scenarios;
+    }
+
+    private HttpRequest eventsRequest(EventDto eventDto) throws Exception {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/events"))
+                .timeout(Duration.ofSeconds(10))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .header(HttpHeaders.ACCEPT, MediaTypes.HAL_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(eventDto)))
+                .build();
+    }
+
+    /**
+     * 예정 시각마다 요청을 보낸다.
+     * 동시에 처리 중인 요청이 load.concurrency 를 넘으면 자리가 날 때까지 기다리지만, 그 대기 시간도 지연시간에 포함된다.
+     */
+    private void run(HttpClient client, List<Scenario> scenarios, int seconds) throws InterruptedException {
+        int totalWeight = scenarios.stream().mapToInt(s -> s.weight).sum();
+        int total = rate * seconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+
+        Random random = new Random(seed);
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(total);
+
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long intendedNanos = startNanos + i * intervalNanos;
+            long waitNanos = intendedNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+
+            Scenario scenario = pick(scenarios, random.nextInt(totalWeight));
+            inFlight.acquire();
+            try {
+                client.sendAsync(scenario.request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, throwable) -> {
+                            scenario.record(intendedNanos, response, throwable);
+                            inFlight.release();
+                            done.countDown();
+                        });
+            } catch (RuntimeException e) {
+                scenario.record(intendedNanos, null, e);
+                inFlight.release();
+                done.countDown();
+            }
+        }
+
+        // 끝나지 않은 요청이 남아 있으면 다음 구간(워밍업 이후 측정) 히스토그램에 섞이므로 실패시킨다.
+        assertTrue("requests still in flight after " + (seconds + 30) + "s",
+                done.await(seconds + 30L, TimeUnit.SECONDS));
+    }
+
+    private Scenario pick(List<Scenario> scenarios, int value) {
+        for (Scenario scenario : scenarios) {
+            value -= scenario.weight;
+            if (value < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    private void report(List<Scenario> scenarios, double elapsedSeconds) throws Exception {
+        assertNotNull("load.outputDirectory is not set (run with mvn -Pload-test verify)", this.outputDirectory);
+        File outputDirectory = new File(this.outputDirectory);
+        outputDirectory.mkdirs();
+
+        long totalCount = 0;
+        long totalErrors = 0;
+        List<Histogram> histograms = new ArrayList<>();
+
+        System.out.printf("%-26s %8s %10s %8s %8s %8s %8s %8s%n",
+                "endpoint", "count", "req/s", "errors", "p50(ms)", "p99(ms)", "p99.9", "max");
+        for (Scenario scenario : scenarios) {
+            Histogram histogram = scenario.recorder.getIntervalHistogram();
+            histograms.add(histogram);
+            totalCount += histogram.getTotalCount();
+            totalErrors += scenario.errors.get();
+
+            System.out.printf("%-26s %8d %10.1f %8d %8.2f %8.2f %8.2f %8.2f%n",
+                    scenario.name,
+                    histogram.getTotalCount(),
+                    histogram.getTotalCount() / elapsedSeconds,
+                    scenario.errors.get(),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+
+            try (PrintStream out = new PrintStream(new File(outputDirectory, scenario.name + ".hgrm"))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        double throughput = totalCount / elapsedSeconds;
+        double errorRatio = totalCount == 0 ? 1.0 : (double) totalErrors / totalCount;
+        System.out.printf("total: %d requests, %.1f req/s (target %d req/s), error ratio %.4f%n",
+                totalCount, throughput, rate, errorRatio);
+
+        // 모든 결과를 남긴 다음에 임계값을 확인한다.
+        for (int i = 0; i < scenarios.size(); i++) {
+            Histogram histogram = histograms.get(i);
+            if (histogram.getTotalCount() > 0) {
+                assertThat(scenarios.get(i).name + " p99(ms)", millis(histogram.getValueAtPercentile(99)), lessThanOrEqualTo(maxP99Millis));
+            }
+        }
+        assertThat("error ratio", errorRatio, lessThanOrEqualTo(maxErrorRatio));
+        assertThat("throughput(req/s)", throughput, greaterThanOrEqualTo(rate * minThroughputRatio));
+    }
+
+    private double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * 엔드포인트별 요청과 지연시간 히스토그램(마이크로초 단위)
+     * 기대한 상태 코드가 아니거나 요청이 실패하면 에러로 센다.
+     */
+    static class Scenario {
+
+        final String name;
+        final int weight;
+        final int expectedStatus;
+        final HttpRequest request;
+        final Recorder recorder = new Recorder(3);
+        final AtomicLong errors = new AtomicLong();
+
+        Scenario(String name, int weight, int expectedStatus, HttpRequest request) {
+            this.name = name;
+            this.weight = weight;
+            this.expectedStatus = expectedStatus;
+            this.request = request;
+        }
+
+        void record(long intendedNanos, HttpResponse<?> response, Throwable throwable) {
+            recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos));
+            if (throwable != null || response.statusCode() != expectedStatus) {
+                errors.incrementAndGet();
+            }
+        }
+
+        void reset() {
+            recorder.reset();
+            errors.set(0);
+        }
+
+    }
+
+}